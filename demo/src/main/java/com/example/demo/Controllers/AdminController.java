@@ -0,0 +1,26 @@
+package com.example.demo.Controllers;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.ReporteConsistencia;
+import com.example.demo.services.VerificadorConsistencia;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final VerificadorConsistencia verificadorConsistencia;
+
+    public AdminController(VerificadorConsistencia verificadorConsistencia) {
+        this.verificadorConsistencia = verificadorConsistencia;
+    }
+
+    // Revisa el log completo de registros; con ?reparar=true elimina los duplicados claros
+    @PostMapping("/consistencia")
+    public ReporteConsistencia verificarConsistencia(@RequestParam(defaultValue = "false") boolean reparar) {
+        return verificadorConsistencia.verificar(reparar);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.Controllers;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.Alerta;
+import com.example.demo.services.DetectorAnomalias;
+
+@RestController
+@RequestMapping("/alertas")
+public class AlertaController {
+
+    private final DetectorAnomalias detectorAnomalias;
+
+    public AlertaController(DetectorAnomalias detectorAnomalias) {
+        this.detectorAnomalias = detectorAnomalias;
+    }
+
+    // Alertas recientes; con ?desdeId= el frontend puede pedir solo las nuevas
+    @GetMapping
+    public List<Alerta> getAlertas(@RequestParam(defaultValue = "0") long desdeId) {
+        return detectorAnomalias.getAlertas(desdeId);
+    }
+}
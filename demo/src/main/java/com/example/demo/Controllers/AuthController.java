@@ -1,6 +1,9 @@
 package com.example.demo.Controllers;
 
 import com.example.demo.config.JwtUtil;
+import com.example.demo.services.LimitadorTasa;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -24,11 +27,14 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final LimitadorTasa limitadorTasa;
 
-    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                          LimitadorTasa limitadorTasa) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.limitadorTasa = limitadorTasa;
     }
 
     @PostMapping("/login")
@@ -36,6 +42,14 @@ public class AuthController {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
+        // Límite por usuario antes de gastar una verificación BCrypt (el límite por IP lo aplica RateLimitFilter)
+        long espera = limitadorTasa.intentar(limitadorTasa.getLoginUsuario(), String.valueOf(username));
+        if (espera > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(espera))
+                .body("Demasiados intentos, intente más tarde");
+        }
+
         try {
             authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
         } catch (BadCredentialsException e) {
@@ -0,0 +1,27 @@
+package com.example.demo.Controllers;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.ListaPermitidosRespuesta;
+import com.example.demo.services.ListaPermitidos;
+
+@RestController
+@RequestMapping("/lista-permitidos")
+public class ListaPermitidosController {
+
+    private final ListaPermitidos listaPermitidos;
+
+    public ListaPermitidosController(ListaPermitidos listaPermitidos) {
+        this.listaPermitidos = listaPermitidos;
+    }
+
+    // Sin parámetros devuelve la lista completa; con ?epoca=&desde= solo los cambios posteriores
+    @GetMapping
+    public ListaPermitidosRespuesta getListaPermitidos(@RequestParam(required = false) Long epoca,
+                                                       @RequestParam(required = false) Long desde) {
+        return listaPermitidos.consultar(epoca, desde);
+    }
+}
@@ -15,15 +15,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.example.demo.dto.RegistrosColumnar;
 import com.example.demo.entities.Lector;
 import com.example.demo.entities.Registro;
 import com.example.demo.entities.Usuario;
 import com.example.demo.repositories.LectorRepository;
 import com.example.demo.repositories.RegistroRepository;
 import com.example.demo.repositories.UsuarioRepository;
+import com.example.demo.services.DetectorAnomalias;
+import com.example.demo.services.LimitadorTasa;
+import com.example.demo.services.TasaExcedidaException;
 
 class RegistroRequest {
     public Long usuarioId;
@@ -43,19 +48,33 @@ public class RegistroController {
     private final RegistroRepository registroRepo;
     private final UsuarioRepository usuarioRepo;
     private final LectorRepository lectorRepo;
+    private final DetectorAnomalias detectorAnomalias;
+    private final LimitadorTasa limitadorTasa;
 
     // Variable temporal para guardar el último tag no registrado
     private String ultimoTagDesconocido = null;
 
-    public RegistroController(RegistroRepository registroRepo, UsuarioRepository usuarioRepo, LectorRepository lectorRepo) {
+    public RegistroController(RegistroRepository registroRepo, UsuarioRepository usuarioRepo, LectorRepository lectorRepo,
+                              DetectorAnomalias detectorAnomalias, LimitadorTasa limitadorTasa) {
         this.registroRepo = registroRepo;
         this.usuarioRepo = usuarioRepo;
         this.lectorRepo = lectorRepo;
+        this.detectorAnomalias = detectorAnomalias;
+        this.limitadorTasa = limitadorTasa;
     }
 
     @GetMapping
-    public List<Registro> getAllRegistros() {
-        return registroRepo.findAll();
+    public ResponseEntity<?> getAllRegistros(@RequestParam(required = false) String formato) {
+        return representar(registroRepo.findAll(), formato);
+    }
+
+    // Con ?formato=columnar se devuelve la lista en formato columnar, enviando cada usuario y lector
+    // una sola vez; la codificación (JSON o CBOR) la decide el Accept por negociación de contenido
+    private ResponseEntity<?> representar(List<Registro> registros, String formato) {
+        if ("columnar".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok(RegistrosColumnar.de(registros));
+        }
+        return ResponseEntity.ok(registros);
     }
 
     // --- NUEVO ENDPOINT: Obtener el último tag desconocido ---
@@ -85,6 +104,12 @@ public class RegistroController {
 
     @PostMapping("/rfid")
     public Registro createRegistroByRfid(@RequestBody RfidRequest rfidRequest) {
+        // Límite por lector antes de cualquier consulta (el límite por IP lo aplica RateLimitFilter)
+        long espera = limitadorTasa.intentar(limitadorTasa.getRfidLector(), String.valueOf(rfidRequest.lectorId));
+        if (espera > 0) {
+            throw new TasaExcedidaException(espera);
+        }
+
         // Buscamos el usuario por el tag
         Optional<Usuario> usuarioOpt = usuarioRepo.findByRfidTag(rfidRequest.rfidTag);
 
@@ -92,11 +117,13 @@ public class RegistroController {
         if (!usuarioOpt.isPresent()) {
             // Guardamos este tag en la variable temporal para que el Frontend pueda capturarlo
             this.ultimoTagDesconocido = rfidRequest.rfidTag;
+            detectorAnomalias.registrarDesconocido(rfidRequest.rfidTag, rfidRequest.lectorId);
             System.out.println("Tag desconocido detectado y guardado temporalmente: " + rfidRequest.rfidTag);
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Tag no registrado. Guardado para captura.");
         }
 
         Usuario usuario = usuarioOpt.get();
+        detectorAnomalias.registrarLectura(rfidRequest.rfidTag, rfidRequest.lectorId);
         
         if (!"Activo".equalsIgnoreCase(usuario.getEstado())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Usuario inactivo");
@@ -126,17 +153,20 @@ public class RegistroController {
     }
 
     @GetMapping("/fecha/{fecha}")
-    public List<Registro> getRegistrosByFecha(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
-        return registroRepo.findByFecha(fecha);
+    public ResponseEntity<?> getRegistrosByFecha(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+                                                 @RequestParam(required = false) String formato) {
+        return representar(registroRepo.findByFecha(fecha), formato);
     }
 
     @GetMapping("/usuario/{usuarioId}")
-    public List<Registro> getRegistrosByUsuario(@PathVariable Long usuarioId) {
-        return registroRepo.findByUsuarioIdOrderByFechaHoraDesc(usuarioId);
+    public ResponseEntity<?> getRegistrosByUsuario(@PathVariable Long usuarioId,
+                                                   @RequestParam(required = false) String formato) {
+        return representar(registroRepo.findByUsuarioIdOrderByFechaHoraDesc(usuarioId), formato);
     }
     
     @GetMapping("/lector/{lectorId}")
-    public List<Registro> getRegistrosByLector(@PathVariable Long lectorId) {
-        return registroRepo.findByLectorIdOrderByFechaHoraDesc(lectorId);
+    public ResponseEntity<?> getRegistrosByLector(@PathVariable Long lectorId,
+                                                  @RequestParam(required = false) String formato) {
+        return representar(registroRepo.findByLectorIdOrderByFechaHoraDesc(lectorId), formato);
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.demo.Controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.demo.dto.AsistenciaUsuario;
+import com.example.demo.repositories.RegistroRepository;
+
+@RestController
+@RequestMapping("/reportes")
+public class ReporteController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final RegistroRepository registroRepo;
+
+    public ReporteController(RegistroRepository registroRepo) {
+        this.registroRepo = registroRepo;
+    }
+
+    // Reporte de asistencia entre dos fechas (ambas incluidas); con ?formato=csv se descarga como CSV.
+    // Incluye a quien ya estaba dentro al empezar el rango aunque no tenga movimientos en él
+    @GetMapping("/asistencia")
+    public ResponseEntity<?> getReporteAsistencia(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String formato) {
+        if (hasta.isBefore(desde)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La fecha 'hasta' es anterior a 'desde'");
+        }
+
+        List<AsistenciaUsuario> filas = registroRepo.reporteAsistencia(
+            desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay());
+
+        if ("csv".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"asistencia_" + desde + "_" + hasta + ".csv\"")
+                .body(aCsv(filas));
+        }
+        return ResponseEntity.ok(filas);
+    }
+
+    private String aCsv(List<AsistenciaUsuario> filas) {
+        StringBuilder sb = new StringBuilder(64 * (filas.size() + 1));
+        sb.append("usuarioId,nombre,documento,diasAsistidos,visitas,segundosDentro,entradasSinSalida,salidasSinEntrada,dentroAlInicio\n");
+        for (AsistenciaUsuario f : filas) {
+            sb.append(f.getUsuarioId()).append(',')
+              .append(campoCsv(f.getNombre())).append(',')
+              .append(campoCsv(f.getDocumento())).append(',')
+              .append(f.getDiasAsistidos()).append(',')
+              .append(f.getVisitas()).append(',')
+              .append(f.getSegundosDentro()).append(',')
+              .append(f.getEntradasSinSalida()).append(',')
+              .append(f.getSalidasSinEntrada()).append(',')
+              .append(f.getDentroAlInicio()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0) {
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+        return valor;
+    }
+}
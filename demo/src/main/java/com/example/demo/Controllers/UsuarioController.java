@@ -13,15 +13,18 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.entities.Usuario;
 import com.example.demo.repositories.UsuarioRepository;
+import com.example.demo.services.ListaPermitidos;
 
 @RestController
 @RequestMapping("/usuarios")
 public class UsuarioController {
 
     private final UsuarioRepository usuarioRepo;
+    private final ListaPermitidos listaPermitidos;
 
-    public UsuarioController(UsuarioRepository usuarioRepo) {
+    public UsuarioController(UsuarioRepository usuarioRepo, ListaPermitidos listaPermitidos) {
         this.usuarioRepo = usuarioRepo;
+        this.listaPermitidos = listaPermitidos;
     }
 
     @GetMapping
@@ -35,7 +38,9 @@ public class UsuarioController {
         if (usuario.getEstado() == null || usuario.getEstado().isEmpty()) {
             usuario.setEstado("Activo");
         }
-        return usuarioRepo.save(usuario);
+        Usuario guardado = usuarioRepo.save(usuario);
+        listaPermitidos.cambio(null, null, guardado.getRfidTag(), guardado.getEstado());
+        return guardado;
     }
 
     @GetMapping("/{id}")
@@ -54,18 +59,25 @@ public class UsuarioController {
     public Usuario updateUsuario(@PathVariable Long id, @RequestBody Usuario usuarioDetails) {
         Usuario usuario = usuarioRepo.findById(id)
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado con id: " + id));
+        String tagAnterior = usuario.getRfidTag();
+        String estadoAnterior = usuario.getEstado();
         
         usuario.setNombre(usuarioDetails.getNombre());
         usuario.setDocumento(usuarioDetails.getDocumento());
         usuario.setRfidTag(usuarioDetails.getRfidTag());
         usuario.setEstado(usuarioDetails.getEstado());
         
-        return usuarioRepo.save(usuario);
+        Usuario guardado = usuarioRepo.save(usuario);
+        listaPermitidos.cambio(tagAnterior, estadoAnterior, guardado.getRfidTag(), guardado.getEstado());
+        return guardado;
     }
 
     @DeleteMapping("/{id}")
     public void deleteUsuario(@PathVariable Long id) {
         // Elimina el usuario y sus registros en cascada
-        usuarioRepo.deleteById(id);
+        usuarioRepo.findById(id).ifPresent(usuario -> {
+            usuarioRepo.delete(usuario);
+            listaPermitidos.cambio(usuario.getRfidTag(), usuario.getEstado(), null, null);
+        });
     }
 }
\ No newline at end of file
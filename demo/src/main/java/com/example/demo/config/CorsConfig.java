@@ -20,6 +20,7 @@ public class CorsConfig {
                         )
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("Retry-After")
                         .allowCredentials(true); // Es importante permitir credenciales
             }
         };
@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Con Spring AOT las condiciones (como spring.flyway.enabled) se fijan al compilar, así que
+     * para la ejecución de entrenamiento de CDS sin base de datos se omite la migración con
+     * migraciones.omitir=true, que sí se lee en tiempo de ejecución.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${migraciones.omitir:false}") boolean omitir) {
+        return flyway -> {
+            if (omitir) {
+                System.out.println("Migraciones de Flyway omitidas (migraciones.omitir=true)");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.config;
+
+import com.example.demo.services.LimitadorTasa;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Límite por IP de las rutas públicas (/registros/rfid y /auth/login). Se ejecuta antes que la
+ * cadena de seguridad para cortar una avalancha antes de leer el cuerpo o tocar la base de datos;
+ * los límites por lector y por usuario se aplican en los controladores, una vez leído el cuerpo.
+ * La IP es request.getRemoteAddr(): detrás de un proxy (Render) depende de
+ * server.forward-headers-strategy=native para tomar X-Forwarded-For de proxies de red interna;
+ * sin eso todos los clientes compartirían la cubeta del proxy. Como la respuesta 429 sale antes
+ * del filtro CORS de Spring Security, aquí se añaden las cabeceras CORS para que el frontend
+ * pueda leer el estado y Retry-After.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final LimitadorTasa limitadorTasa;
+    private final UrlBasedCorsConfigurationSource corsConfigurationSource;
+    private final DefaultCorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    public RateLimitFilter(LimitadorTasa limitadorTasa, UrlBasedCorsConfigurationSource corsConfigurationSource) {
+        this.limitadorTasa = limitadorTasa;
+        this.corsConfigurationSource = corsConfigurationSource;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        LimitadorTasa.Regla regla = switch (request.getServletPath()) {
+            case "/registros/rfid" -> limitadorTasa.getRfidIp();
+            case "/auth/login" -> limitadorTasa.getLoginIp();
+            default -> null;
+        };
+
+        if (regla != null) {
+            long espera = limitadorTasa.intentar(regla, request.getRemoteAddr());
+            if (espera > 0) {
+                if (CorsUtils.isCorsRequest(request)) {
+                    CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+                    if (cors != null && !corsProcessor.processRequest(cors, request, response)) {
+                        // Origen no permitido: el procesador CORS ya respondió 403
+                        return;
+                    }
+                }
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(espera));
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getWriter().write("Demasiadas solicitudes, intente más tarde");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
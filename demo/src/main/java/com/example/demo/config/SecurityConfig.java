@@ -4,6 +4,7 @@ import java.util.Arrays;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -63,6 +64,8 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtRequestFilt
         .authorizeHttpRequests(auth -> auth
             // PERMITIR ACCESO LIBRE A ESTAS RUTAS:
             .requestMatchers("/auth/login", "/registros/rfid").permitAll() 
+            // Los lectores descargan la lista de tags permitidos sin token
+            .requestMatchers(HttpMethod.GET, "/lista-permitidos").permitAll()
             // El resto requiere autenticación (Token)
             .anyRequest().authenticated()
         )
@@ -81,6 +84,8 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtRequestFilt
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "https://control-acceso-frontend-xra1.onrender.com"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Para que el frontend pueda leer Retry-After en las respuestas 429
+        configuration.setExposedHeaders(Arrays.asList("Retry-After"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
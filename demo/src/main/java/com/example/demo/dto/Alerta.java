@@ -0,0 +1,41 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alerta emitida por el detector de anomalías sobre el flujo de lecturas RFID.
+ */
+public class Alerta {
+
+    public enum Tipo {
+        // La misma tarjeta en dos lectores distintos en menos del tiempo mínimo de traslado entre ellos
+        VIAJE_IMPOSIBLE,
+        // La misma tarjeta pasada muchas veces seguidas (passback / tailgating)
+        RAFAGA_TAG,
+        // Un lector recibe muchos tags no registrados en poco tiempo
+        RAFAGA_DESCONOCIDOS
+    }
+
+    private final long id;
+    private final Tipo tipo;
+    private final String rfidTag;
+    private final Long lectorId;
+    private final LocalDateTime fechaHora;
+    private final String detalle;
+
+    public Alerta(long id, Tipo tipo, String rfidTag, Long lectorId, LocalDateTime fechaHora, String detalle) {
+        this.id = id;
+        this.tipo = tipo;
+        this.rfidTag = rfidTag;
+        this.lectorId = lectorId;
+        this.fechaHora = fechaHora;
+        this.detalle = detalle;
+    }
+
+    public long getId() { return id; }
+    public Tipo getTipo() { return tipo; }
+    public String getRfidTag() { return rfidTag; }
+    public Long getLectorId() { return lectorId; }
+    public LocalDateTime getFechaHora() { return fechaHora; }
+    public String getDetalle() { return detalle; }
+}
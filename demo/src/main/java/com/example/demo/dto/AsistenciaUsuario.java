@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+/**
+ * Fila del reporte de asistencia: resumen de los movimientos de un usuario en un rango de fechas.
+ * Cada entrada se empareja con la salida inmediatamente posterior del mismo usuario.
+ */
+public interface AsistenciaUsuario {
+
+    Long getUsuarioId();
+
+    String getNombre();
+
+    String getDocumento();
+
+    // Días distintos con al menos una entrada
+    Long getDiasAsistidos();
+
+    // Pares entrada/salida completos
+    Long getVisitas();
+
+    // Tiempo total dentro sumando solo los pares completos
+    Long getSegundosDentro();
+
+    // Entradas sin salida posterior dentro del rango (salida perdida o aún dentro)
+    Long getEntradasSinSalida();
+
+    // Salidas sin entrada previa dentro del rango
+    Long getSalidasSinEntrada();
+
+    // El último movimiento anterior al rango es una entrada: ya estaba dentro al empezar. Un usuario
+    // que entra antes del rango y sale después aparece solo con este indicador, sin visitas ni tiempo
+    Boolean getDentroAlInicio();
+}
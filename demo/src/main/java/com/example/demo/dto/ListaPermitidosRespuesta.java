@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+/**
+ * Respuesta de /lista-permitidos. Los hashes van como bytes big-endian, 8 por tag, para que el
+ * lector los use sin convertirlos (en JSON Jackson los envía en base64, en CBOR como binario).
+ * Si {@code completa} es true, {@code hashes} trae la lista entera ordenada como enteros sin
+ * signo y el lector debe reemplazar la suya; si no, solo se envían {@code altas} y {@code bajas}.
+ */
+public class ListaPermitidosRespuesta {
+
+    private final long epoca;
+    private final long version;
+    private final boolean completa;
+    private final byte[] hashes;
+    private final byte[] altas;
+    private final byte[] bajas;
+
+    public ListaPermitidosRespuesta(long epoca, long version, boolean completa, byte[] hashes, byte[] altas, byte[] bajas) {
+        this.epoca = epoca;
+        this.version = version;
+        this.completa = completa;
+        this.hashes = hashes;
+        this.altas = altas;
+        this.bajas = bajas;
+    }
+
+    public long getEpoca() { return epoca; }
+    public long getVersion() { return version; }
+    public boolean isCompleta() { return completa; }
+    public byte[] getHashes() { return hashes; }
+    public byte[] getAltas() { return altas; }
+    public byte[] getBajas() { return bajas; }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.entities.Lector;
+import com.example.demo.entities.Registro;
+import com.example.demo.entities.Usuario;
+
+/**
+ * Representación columnar de una lista de registros para respuestas masivas.
+ * Cada usuario, lector y tipo de movimiento aparece una sola vez en su diccionario
+ * y las columnas guardan el índice dentro de él (-1 si el registro no lo tiene).
+ * Las fechas se envían como milisegundos desde epoch; fechaHora se guarda con LocalDateTime.now(),
+ * así que se interpreta en la zona horaria del servidor.
+ */
+public class RegistrosColumnar {
+
+    private final List<Usuario> usuarios = new ArrayList<>();
+    private final List<Lector> lectores = new ArrayList<>();
+    private final List<String> tipos = new ArrayList<>();
+
+    private final long[] id;
+    private final long[] fechaHora;
+    private final int[] usuario;
+    private final int[] lector;
+    private final int[] tipo;
+
+    private RegistrosColumnar(int n) {
+        this.id = new long[n];
+        this.fechaHora = new long[n];
+        this.usuario = new int[n];
+        this.lector = new int[n];
+        this.tipo = new int[n];
+    }
+
+    public static RegistrosColumnar de(List<Registro> registros) {
+        RegistrosColumnar r = new RegistrosColumnar(registros.size());
+        ZoneId zona = ZoneId.systemDefault();
+        // Hibernate devuelve la misma instancia para la misma fila dentro de una consulta,
+        // por eso basta con comparar por identidad
+        Map<Usuario, Integer> idxUsuario = new IdentityHashMap<>();
+        Map<Lector, Integer> idxLector = new IdentityHashMap<>();
+        Map<String, Integer> idxTipo = new LinkedHashMap<>();
+
+        for (int i = 0; i < registros.size(); i++) {
+            Registro reg = registros.get(i);
+            r.id[i] = reg.getId();
+            LocalDateTime fecha = reg.getFechaHora();
+            r.fechaHora[i] = fecha != null ? fecha.atZone(zona).toInstant().toEpochMilli() : 0L;
+            r.usuario[i] = indice(idxUsuario, r.usuarios, reg.getUsuario());
+            r.lector[i] = indice(idxLector, r.lectores, reg.getLector());
+            r.tipo[i] = indice(idxTipo, r.tipos, reg.getTipoMovimiento());
+        }
+        return r;
+    }
+
+    private static <T> int indice(Map<T, Integer> indices, List<T> diccionario, T valor) {
+        if (valor == null) {
+            return -1;
+        }
+        return indices.computeIfAbsent(valor, v -> {
+            diccionario.add(v);
+            return diccionario.size() - 1;
+        });
+    }
+
+    public List<Usuario> getUsuarios() { return usuarios; }
+    public List<Lector> getLectores() { return lectores; }
+    public List<String> getTipos() { return tipos; }
+    public long[] getId() { return id; }
+    public long[] getFechaHora() { return fechaHora; }
+    public int[] getUsuario() { return usuario; }
+    public int[] getLector() { return lector; }
+    public int[] getTipo() { return tipo; }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de recorrer el log de registros con {@code VerificadorConsistencia}. Cada hilo acumula
+ * en su propio reporte y al final se combinan con {@link #combinar}. Solo se guarda una muestra
+ * acotada de inconsistencias; los contadores sí son totales.
+ */
+public class ReporteConsistencia {
+
+    public static class Inconsistencia {
+        private final long registroId;
+        private final long usuarioId;
+        private final String tipo;
+        private final String detalle;
+
+        public Inconsistencia(long registroId, long usuarioId, String tipo, String detalle) {
+            this.registroId = registroId;
+            this.usuarioId = usuarioId;
+            this.tipo = tipo;
+            this.detalle = detalle;
+        }
+
+        public long getRegistroId() { return registroId; }
+        public long getUsuarioId() { return usuarioId; }
+        public String getTipo() { return tipo; }
+        public String getDetalle() { return detalle; }
+    }
+
+    private final int maxMuestras;
+
+    private long filas;
+    private long usuarios;
+    private long usuariosDentro;
+    private long entradas;
+    private long salidas;
+    private long duplicados;
+    private long secuenciaInvalida;
+    private long fechaRetrocede;
+    private long posiblesDuplicados;
+    private long eliminadas;
+    private boolean reparar;
+    private int particiones;
+    private long duracionMs;
+    private final List<Inconsistencia> muestras = new ArrayList<>();
+
+    public ReporteConsistencia(int maxMuestras) {
+        this.maxMuestras = maxMuestras;
+    }
+
+    public void agregarMuestra(Inconsistencia inconsistencia) {
+        if (muestras.size() < maxMuestras) {
+            muestras.add(inconsistencia);
+        }
+    }
+
+    public void combinar(ReporteConsistencia otro) {
+        filas += otro.filas;
+        usuarios += otro.usuarios;
+        usuariosDentro += otro.usuariosDentro;
+        entradas += otro.entradas;
+        salidas += otro.salidas;
+        duplicados += otro.duplicados;
+        secuenciaInvalida += otro.secuenciaInvalida;
+        fechaRetrocede += otro.fechaRetrocede;
+        posiblesDuplicados += otro.posiblesDuplicados;
+        eliminadas += otro.eliminadas;
+        for (Inconsistencia i : otro.muestras) {
+            agregarMuestra(i);
+        }
+    }
+
+    public void sumarFila() { filas++; }
+    public void sumarUsuario() { usuarios++; }
+    public void sumarUsuarioDentro() { usuariosDentro++; }
+    public void sumarEntrada() { entradas++; }
+    public void sumarSalida() { salidas++; }
+    public void sumarDuplicado() { duplicados++; }
+    public void sumarSecuenciaInvalida() { secuenciaInvalida++; }
+    public void sumarFechaRetrocede() { fechaRetrocede++; }
+    public void sumarPosibleDuplicado() { posiblesDuplicados++; }
+    public void sumarEliminadas(long n) { eliminadas += n; }
+    public void setReparar(boolean reparar) { this.reparar = reparar; }
+    public void setParticiones(int particiones) { this.particiones = particiones; }
+    public void setDuracionMs(long duracionMs) { this.duracionMs = duracionMs; }
+
+    public long getFilas() { return filas; }
+    public long getUsuarios() { return usuarios; }
+    // Usuarios cuyo último movimiento (sin contar duplicados) es una entrada
+    public long getUsuariosDentro() { return usuariosDentro; }
+    public long getEntradas() { return entradas; }
+    public long getSalidas() { return salidas; }
+    // Repeticiones del mismo tipo a pocos segundos de la fila anterior: se eliminan al reparar
+    public long getDuplicados() { return duplicados; }
+    // Filas que no alternan con la anterior sin ser un duplicado claro: solo se reportan
+    public long getSecuenciaInvalida() { return secuenciaInvalida; }
+    public long getFechaRetrocede() { return fechaRetrocede; }
+    // Entrada y salida a pocos segundos (posible doble lectura): solo se reportan
+    public long getPosiblesDuplicados() { return posiblesDuplicados; }
+    public long getEliminadas() { return eliminadas; }
+    public boolean isReparar() { return reparar; }
+    public int getParticiones() { return particiones; }
+    public long getDuracionMs() { return duracionMs; }
+    public long getFilasPorSegundo() { return duracionMs > 0 ? filas * 1000 / duracionMs : filas; }
+    public List<Inconsistencia> getMuestras() { return muestras; }
+}
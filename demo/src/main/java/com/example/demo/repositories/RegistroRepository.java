@@ -1,6 +1,7 @@
 package com.example.demo.repositories;
 
 import java.time.LocalDate; 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param; 
 
+import com.example.demo.dto.AsistenciaUsuario;
 import com.example.demo.entities.Registro;
 import com.example.demo.entities.Usuario;
 
@@ -19,4 +21,83 @@ public interface RegistroRepository extends JpaRepository<Registro, Long> {
     @Query("SELECT r FROM Registro r WHERE CAST(r.fechaHora AS date) = :fecha")
     List<Registro> findByFecha(@Param("fecha") LocalDate fecha);
     List<Registro> findByLectorIdOrderByFechaHoraDesc(Long lectorId);
+
+    // Empareja cada entrada con el movimiento siguiente del mismo usuario (LEAD/LAG) y agrega por
+    // usuario en una sola consulta. La ventana incluye, por usuario, el último movimiento anterior a
+    // :desde y el primero desde :hasta (LATERAL sobre el índice (usuario_id, fecha_hora)), así una
+    // estancia que cruza un borde del rango no se cuenta como entrada sin salida ni salida sin
+    // entrada. Solo se cuentan los pares cuya entrada cae dentro del rango. También aparecen los
+    // usuarios sin movimientos en el rango cuyo último movimiento anterior a :desde es una entrada
+    // (siguen dentro), con dentroAlInicio = true.
+    @Query(value = """
+        WITH rango AS (
+            SELECT r.id, r.usuario_id, r.tipo_movimiento, r.fecha_hora
+            FROM registro r
+            WHERE r.usuario_id IS NOT NULL
+              AND r.fecha_hora >= :desde AND r.fecha_hora < :hasta
+        ),
+        usuarios_rango AS (
+            SELECT usuario_id FROM rango
+            UNION
+            SELECT us.id
+            FROM usuario us
+            CROSS JOIN LATERAL (
+                SELECT r.tipo_movimiento
+                FROM registro r
+                WHERE r.usuario_id = us.id AND r.fecha_hora < :desde
+                ORDER BY r.fecha_hora DESC, r.id DESC
+                LIMIT 1
+            ) p
+            WHERE LOWER(p.tipo_movimiento) = 'entrada'
+        ),
+        bordes AS (
+            SELECT a.id, a.usuario_id, a.tipo_movimiento, a.fecha_hora
+            FROM usuarios_rango u
+            CROSS JOIN LATERAL (
+                SELECT r.id, r.usuario_id, r.tipo_movimiento, r.fecha_hora
+                FROM registro r
+                WHERE r.usuario_id = u.usuario_id AND r.fecha_hora < :desde
+                ORDER BY r.fecha_hora DESC, r.id DESC
+                LIMIT 1
+            ) a
+            UNION ALL
+            SELECT s.id, s.usuario_id, s.tipo_movimiento, s.fecha_hora
+            FROM usuarios_rango u
+            CROSS JOIN LATERAL (
+                SELECT r.id, r.usuario_id, r.tipo_movimiento, r.fecha_hora
+                FROM registro r
+                WHERE r.usuario_id = u.usuario_id AND r.fecha_hora >= :hasta
+                ORDER BY r.fecha_hora, r.id
+                LIMIT 1
+            ) s
+        ),
+        movimientos AS (
+            SELECT v.usuario_id,
+                   LOWER(v.tipo_movimiento) AS tipo,
+                   v.fecha_hora,
+                   v.fecha_hora >= :desde AND v.fecha_hora < :hasta AS en_rango,
+                   LEAD(LOWER(v.tipo_movimiento)) OVER w AS tipo_siguiente,
+                   LEAD(v.fecha_hora) OVER w AS fecha_siguiente,
+                   LAG(LOWER(v.tipo_movimiento)) OVER w AS tipo_anterior
+            FROM (SELECT * FROM rango UNION ALL SELECT * FROM bordes) v
+            WINDOW w AS (PARTITION BY v.usuario_id ORDER BY v.fecha_hora, v.id)
+        )
+        SELECT u.id AS "usuarioId",
+               u.nombre AS "nombre",
+               u.documento AS "documento",
+               COUNT(DISTINCT CAST(m.fecha_hora AS date)) FILTER (WHERE m.en_rango AND m.tipo = 'entrada') AS "diasAsistidos",
+               COUNT(*) FILTER (WHERE m.en_rango AND m.tipo = 'entrada' AND m.tipo_siguiente = 'salida') AS "visitas",
+               CAST(COALESCE(SUM(EXTRACT(EPOCH FROM m.fecha_siguiente - m.fecha_hora))
+                   FILTER (WHERE m.en_rango AND m.tipo = 'entrada' AND m.tipo_siguiente = 'salida'), 0) AS BIGINT) AS "segundosDentro",
+               COUNT(*) FILTER (WHERE m.en_rango AND m.tipo = 'entrada'
+                   AND (m.tipo_siguiente IS NULL OR m.tipo_siguiente <> 'salida')) AS "entradasSinSalida",
+               COUNT(*) FILTER (WHERE m.en_rango AND m.tipo = 'salida'
+                   AND (m.tipo_anterior IS NULL OR m.tipo_anterior <> 'entrada')) AS "salidasSinEntrada",
+               COALESCE(BOOL_OR(NOT m.en_rango AND m.fecha_hora < :desde AND m.tipo = 'entrada'), false) AS "dentroAlInicio"
+        FROM movimientos m
+        JOIN usuario u ON u.id = m.usuario_id
+        GROUP BY u.id, u.nombre, u.documento
+        ORDER BY u.nombre, u.id
+        """, nativeQuery = true)
+    List<AsistenciaUsuario> reporteAsistencia(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.Alerta;
+
+/**
+ * Reglas en memoria evaluadas sobre cada lectura RFID. Cada tag y cada lector guarda un estado
+ * de tamaño fijo (último lector y una ventana circular de marcas de tiempo), así que evaluar
+ * una lectura es O(1) y no toca la base de datos. Las claves inactivas se eliminan periódicamente
+ * y las alertas se guardan en un buffer acotado.
+ */
+@Service
+public class DetectorAnomalias {
+
+    private final long viajeImposibleMs;
+    // Tiempo mínimo de traslado entre pares concretos de lectores (clave: menorId-mayorId)
+    private final Map<String, Long> trasladoMsPorPar;
+    private final long trasladoMaximoMs;
+    private final int rafagaTagMax;
+    private final long rafagaTagVentanaMs;
+    private final int rafagaDesconocidosMax;
+    private final long rafagaDesconocidosVentanaMs;
+    private final int maxClaves;
+    private final int maxAlertas;
+
+    private final Map<String, EstadoTag> porTag = new ConcurrentHashMap<>();
+    private final Map<Long, Ventana> desconocidosPorLector = new ConcurrentHashMap<>();
+
+    private final AtomicLong secuenciaAlertas = new AtomicLong();
+    private final Deque<Alerta> alertas = new ArrayDeque<>();
+
+    public DetectorAnomalias(
+            @Value("${anomalias.viaje-imposible-segundos:30}") long viajeImposibleSegundos,
+            @Value("${anomalias.tiempos-traslado:}") String tiemposTraslado,
+            @Value("${anomalias.rafaga-tag.max:4}") int rafagaTagMax,
+            @Value("${anomalias.rafaga-tag.ventana-segundos:60}") long rafagaTagVentanaSegundos,
+            @Value("${anomalias.rafaga-desconocidos.max:5}") int rafagaDesconocidosMax,
+            @Value("${anomalias.rafaga-desconocidos.ventana-segundos:10}") long rafagaDesconocidosVentanaSegundos,
+            @Value("${anomalias.max-claves:100000}") int maxClaves,
+            @Value("${anomalias.max-alertas:1000}") int maxAlertas) {
+        this.viajeImposibleMs = viajeImposibleSegundos * 1000;
+        this.trasladoMsPorPar = parsearTiemposTraslado(tiemposTraslado);
+        this.trasladoMaximoMs = trasladoMsPorPar.values().stream()
+            .mapToLong(Long::longValue).reduce(viajeImposibleMs, Math::max);
+        this.rafagaTagMax = rafagaTagMax;
+        this.rafagaTagVentanaMs = rafagaTagVentanaSegundos * 1000;
+        this.rafagaDesconocidosMax = rafagaDesconocidosMax;
+        this.rafagaDesconocidosVentanaMs = rafagaDesconocidosVentanaSegundos * 1000;
+        this.maxClaves = maxClaves;
+        this.maxAlertas = maxAlertas;
+    }
+
+    // Lectura de un tag registrado en un lector
+    public void registrarLectura(String rfidTag, Long lectorId) {
+        registrarLectura(rfidTag, lectorId, System.currentTimeMillis());
+    }
+
+    void registrarLectura(String rfidTag, Long lectorId, long ahora) {
+        if (rfidTag == null) {
+            return;
+        }
+        EstadoTag estado = porTag.get(rfidTag);
+        if (estado == null) {
+            if (porTag.size() >= maxClaves) {
+                return;
+            }
+            estado = porTag.computeIfAbsent(rfidTag, t -> new EstadoTag(rafagaTagMax));
+        }
+
+        Long lectorAnterior;
+        long instanteAnterior;
+        boolean rafaga;
+        synchronized (estado) {
+            lectorAnterior = estado.ultimoLector;
+            instanteAnterior = estado.ultimoInstante;
+            estado.ultimoLector = lectorId;
+            estado.ultimoInstante = ahora;
+            rafaga = estado.ventana.agregar(ahora, rafagaTagVentanaMs);
+        }
+
+        if (lectorAnterior != null && lectorId != null && !lectorAnterior.equals(lectorId)
+                && ahora - instanteAnterior < trasladoMinimoMs(lectorAnterior, lectorId)) {
+            emitir(Alerta.Tipo.VIAJE_IMPOSIBLE, rfidTag, lectorId,
+                "Leído en el lector " + lectorAnterior + " hace " + (ahora - instanteAnterior) + " ms");
+        }
+        if (rafaga) {
+            emitir(Alerta.Tipo.RAFAGA_TAG, rfidTag, lectorId,
+                rafagaTagMax + " lecturas en menos de " + rafagaTagVentanaMs / 1000 + " s");
+        }
+    }
+
+    // Lectura de un tag no registrado en un lector
+    public void registrarDesconocido(String rfidTag, Long lectorId) {
+        registrarDesconocido(rfidTag, lectorId, System.currentTimeMillis());
+    }
+
+    void registrarDesconocido(String rfidTag, Long lectorId, long ahora) {
+        if (lectorId == null) {
+            return;
+        }
+        Ventana ventana = desconocidosPorLector.get(lectorId);
+        if (ventana == null) {
+            if (desconocidosPorLector.size() >= maxClaves) {
+                return;
+            }
+            ventana = desconocidosPorLector.computeIfAbsent(lectorId, l -> new Ventana(rafagaDesconocidosMax));
+        }
+
+        boolean rafaga;
+        synchronized (ventana) {
+            rafaga = ventana.agregar(ahora, rafagaDesconocidosVentanaMs);
+        }
+        if (rafaga) {
+            emitir(Alerta.Tipo.RAFAGA_DESCONOCIDOS, rfidTag, lectorId,
+                rafagaDesconocidosMax + " tags desconocidos en menos de " + rafagaDesconocidosVentanaMs / 1000 + " s");
+        }
+    }
+
+    // Alertas con id mayor que desdeId, de la más antigua a la más reciente
+    public List<Alerta> getAlertas(long desdeId) {
+        synchronized (alertas) {
+            List<Alerta> resultado = new ArrayList<>();
+            for (Alerta a : alertas) {
+                if (a.getId() > desdeId) {
+                    resultado.add(a);
+                }
+            }
+            return resultado;
+        }
+    }
+
+    // Elimina el estado de tags y lectores sin actividad reciente
+    @Scheduled(fixedDelayString = "${anomalias.limpieza-ms:60000}")
+    public void limpiar() {
+        limpiar(System.currentTimeMillis());
+    }
+
+    void limpiar(long ahora) {
+        long ventanaMaxima = Math.max(trasladoMaximoMs, Math.max(rafagaTagVentanaMs, rafagaDesconocidosVentanaMs));
+        long limite = ahora - ventanaMaxima;
+        porTag.values().removeIf(e -> e.ultimoInstante < limite);
+        desconocidosPorLector.values().removeIf(v -> v.ultimo() < limite);
+    }
+
+    /**
+     * Tiempo mínimo para ir de un lector a otro. Los pares configurados en anomalias.tiempos-traslado
+     * (por ejemplo "1-2:0,1-3:120", en segundos) usan su valor; 0 desactiva la regla para ese par,
+     * útil para el lector de entrada y el de salida de una misma puerta. El resto de pares usa
+     * anomalias.viaje-imposible-segundos.
+     */
+    private long trasladoMinimoMs(long lectorA, long lectorB) {
+        return trasladoMsPorPar.getOrDefault(clavePar(lectorA, lectorB), viajeImposibleMs);
+    }
+
+    private static String clavePar(long lectorA, long lectorB) {
+        return Math.min(lectorA, lectorB) + "-" + Math.max(lectorA, lectorB);
+    }
+
+    private static Map<String, Long> parsearTiemposTraslado(String valor) {
+        Map<String, Long> tiempos = new HashMap<>();
+        if (valor == null || valor.isBlank()) {
+            return tiempos;
+        }
+        for (String entrada : valor.split(",")) {
+            String[] parYSegundos = entrada.trim().split(":");
+            String[] lectores = parYSegundos.length == 2 ? parYSegundos[0].split("-") : new String[0];
+            if (lectores.length != 2) {
+                throw new IllegalArgumentException("anomalias.tiempos-traslado inválido: '" + entrada
+                    + "' (formato esperado lectorA-lectorB:segundos)");
+            }
+            tiempos.put(clavePar(Long.parseLong(lectores[0].trim()), Long.parseLong(lectores[1].trim())),
+                Long.parseLong(parYSegundos[1].trim()) * 1000);
+        }
+        return tiempos;
+    }
+
+    private void emitir(Alerta.Tipo tipo, String rfidTag, Long lectorId, String detalle) {
+        Alerta alerta = new Alerta(secuenciaAlertas.incrementAndGet(), tipo, rfidTag, lectorId,
+            LocalDateTime.now(), detalle);
+        synchronized (alertas) {
+            if (alertas.size() >= maxAlertas) {
+                alertas.removeFirst();
+            }
+            alertas.addLast(alerta);
+        }
+    }
+
+    int clavesActivas() {
+        return porTag.size() + desconocidosPorLector.size();
+    }
+
+    private static final class EstadoTag {
+        Long ultimoLector;
+        volatile long ultimoInstante;
+        final Ventana ventana;
+
+        EstadoTag(int capacidad) {
+            this.ventana = new Ventana(capacidad);
+        }
+    }
+
+    /**
+     * Ventana deslizante de tamaño fijo: guarda las últimas N marcas de tiempo en un arreglo
+     * circular. Hay ráfaga cuando las N lecturas caben dentro de la ventana; tras avisar se
+     * vacía para no repetir la alerta en cada lectura siguiente.
+     */
+    private static final class Ventana {
+        private final long[] instantes;
+        private int siguiente;
+        private int cantidad;
+        private volatile long ultimo;
+
+        Ventana(int capacidad) {
+            this.instantes = new long[Math.max(1, capacidad)];
+        }
+
+        boolean agregar(long ahora, long ventanaMs) {
+            instantes[siguiente] = ahora;
+            siguiente = (siguiente + 1) % instantes.length;
+            ultimo = ahora;
+            if (cantidad < instantes.length) {
+                cantidad++;
+            }
+            // Con el arreglo lleno, la posición siguiente contiene la marca más antigua
+            if (cantidad == instantes.length && ahora - instantes[siguiente] < ventanaMs) {
+                cantidad = 0;
+                return true;
+            }
+            return false;
+        }
+
+        long ultimo() {
+            return ultimo;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Limitador de tasa tipo token bucket sin bloqueos. Cada cubeta es un único AtomicLong con el
+ * instante teórico en que volvería a estar llena (algoritmo GCRA): consumir un token es un
+ * compareAndSet, sin locks ni hilos de recarga. Las cubetas llenas equivalen a no tener estado,
+ * así que la limpieza periódica las descarta. Cada regla tiene su propio mapa de tamaño máximo,
+ * de modo que inundar una regla con claves nuevas no desplaza las claves de las demás.
+ */
+@Service
+public class LimitadorTasa {
+
+    public static final class Regla {
+        private final String nombre;
+        private final long capacidad;
+        private final long intervaloNanos;
+        private final int maxClaves;
+        private final Map<String, AtomicLong> cubetas = new ConcurrentHashMap<>();
+        // Cubeta que comparten las claves nuevas cuando el mapa de la regla está lleno
+        private final AtomicLong desborde = new AtomicLong(Long.MIN_VALUE);
+
+        public Regla(String nombre, long capacidad, double porSegundo, int maxClaves) {
+            if (!(porSegundo > 0) || Double.isInfinite(porSegundo)) {
+                throw new IllegalArgumentException("Tasa inválida para " + nombre + ": " + porSegundo
+                    + " (debe ser un número positivo de tokens por segundo)");
+            }
+            this.nombre = nombre;
+            this.capacidad = Math.max(1, capacidad);
+            this.intervaloNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo));
+            this.maxClaves = maxClaves;
+        }
+
+        public String getNombre() { return nombre; }
+
+        private AtomicLong obtenerCubeta(String clave, long ahora) {
+            AtomicLong cubeta = cubetas.get(clave);
+            if (cubeta != null) {
+                return cubeta;
+            }
+            if (cubetas.size() >= maxClaves) {
+                return desborde;
+            }
+            return cubetas.computeIfAbsent(clave, c -> new AtomicLong(ahora));
+        }
+    }
+
+    private final Regla rfidIp;
+    private final Regla rfidLector;
+    private final Regla loginIp;
+    private final Regla loginUsuario;
+
+    public LimitadorTasa(
+            @Value("${tasa.rfid.ip.capacidad:50}") long rfidIpCapacidad,
+            @Value("${tasa.rfid.ip.por-segundo:20}") double rfidIpPorSegundo,
+            @Value("${tasa.rfid.lector.capacidad:10}") long rfidLectorCapacidad,
+            @Value("${tasa.rfid.lector.por-segundo:5}") double rfidLectorPorSegundo,
+            @Value("${tasa.login.ip.capacidad:20}") long loginIpCapacidad,
+            @Value("${tasa.login.ip.por-segundo:1}") double loginIpPorSegundo,
+            @Value("${tasa.login.usuario.capacidad:5}") long loginUsuarioCapacidad,
+            @Value("${tasa.login.usuario.por-segundo:0.1}") double loginUsuarioPorSegundo,
+            @Value("${tasa.max-claves:50000}") int maxClaves) {
+        // tasa.max-claves es el máximo de claves de cada regla, no del total
+        this.rfidIp = new Regla("rfid-ip", rfidIpCapacidad, rfidIpPorSegundo, maxClaves);
+        this.rfidLector = new Regla("rfid-lector", rfidLectorCapacidad, rfidLectorPorSegundo, maxClaves);
+        this.loginIp = new Regla("login-ip", loginIpCapacidad, loginIpPorSegundo, maxClaves);
+        this.loginUsuario = new Regla("login-usuario", loginUsuarioCapacidad, loginUsuarioPorSegundo, maxClaves);
+    }
+
+    public Regla getRfidIp() { return rfidIp; }
+    public Regla getRfidLector() { return rfidLector; }
+    public Regla getLoginIp() { return loginIp; }
+    public Regla getLoginUsuario() { return loginUsuario; }
+
+    /**
+     * Intenta consumir un token de la cubeta de la clave para la regla dada.
+     * Devuelve 0 si se permite, o los segundos a esperar (redondeados hacia arriba) si no.
+     */
+    public long intentar(Regla regla, String clave) {
+        return intentar(regla, clave, System.nanoTime());
+    }
+
+    long intentar(Regla regla, String clave, long ahora) {
+        AtomicLong cubeta = regla.obtenerCubeta(clave, ahora);
+        long tolerancia = regla.capacidad * regla.intervaloNanos;
+
+        while (true) {
+            long actual = cubeta.get();
+            long siguiente = Math.max(actual, ahora) + regla.intervaloNanos;
+            long espera = siguiente - ahora - tolerancia;
+            if (espera > 0) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + TimeUnit.SECONDS.toNanos(1) - 1));
+            }
+            if (cubeta.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+
+    int cubetasActivas() {
+        return reglas().mapToInt(r -> r.cubetas.size()).sum();
+    }
+
+    // Descarta las cubetas que ya se han recargado por completo
+    @Scheduled(fixedDelayString = "${tasa.limpieza-ms:60000}")
+    public void limpiar() {
+        limpiar(System.nanoTime());
+    }
+
+    void limpiar(long ahora) {
+        reglas().forEach(r -> r.cubetas.values().removeIf(c -> c.get() - ahora <= 0));
+    }
+
+    private Stream<Regla> reglas() {
+        return Stream.of(rfidIp, rfidLector, loginIp, loginUsuario);
+    }
+}
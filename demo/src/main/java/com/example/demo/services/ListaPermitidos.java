@@ -0,0 +1,172 @@
+package com.example.demo.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.ListaPermitidosRespuesta;
+import com.example.demo.entities.Usuario;
+import com.example.demo.repositories.UsuarioRepository;
+
+/**
+ * Lista versionada de los rfidTag de usuarios activos para que los lectores decidan localmente.
+ * Cada tag se publica como los primeros 8 bytes de HMAC-SHA256(clave, tag en UTF-8), con una
+ * clave compartida solo con los lectores (lista-permitidos.clave): los UID de MFRC522 suelen
+ * tener 4 bytes, así que un hash sin clave se invertiría probando los 2^32 tags. Cada alta o baja incrementa
+ * la versión y queda en un historial acotado, de modo que un lector al día solo descarga los
+ * cambios. La época cambia en cada arranque: si no coincide con la del lector, o su versión ya
+ * salió del historial, se envía la lista completa.
+ */
+@Service
+public class ListaPermitidos {
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final UsuarioRepository usuarioRepo;
+    private final int maxCambios;
+    private final long epoca = System.currentTimeMillis();
+    private final Mac mac;
+
+    private final Set<Long> activos = new HashSet<>();
+    private final Deque<Cambio> cambios = new ArrayDeque<>();
+    private long version;
+    private boolean cargada;
+
+    // Lista completa de la versión actual, se recalcula solo cuando cambia la versión
+    private byte[] snapshot;
+    private long versionSnapshot = -1;
+
+    public ListaPermitidos(UsuarioRepository usuarioRepo,
+                           @Value("${lista-permitidos.clave}") String clave,
+                           @Value("${lista-permitidos.max-cambios:10000}") int maxCambios) {
+        if (clave == null || clave.length() < 16) {
+            throw new IllegalArgumentException("lista-permitidos.clave debe tener al menos 16 caracteres");
+        }
+        this.usuarioRepo = usuarioRepo;
+        this.maxCambios = maxCambios;
+        try {
+            this.mac = Mac.getInstance(ALGORITMO);
+            this.mac.init(new SecretKeySpec(clave.getBytes(StandardCharsets.UTF_8), ALGORITMO));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar " + ALGORITMO, e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void cargar() {
+        if (cargada) {
+            return;
+        }
+        for (Usuario u : usuarioRepo.findAll()) {
+            if (esActivo(u.getEstado()) && u.getRfidTag() != null) {
+                activos.add(hash(u.getRfidTag()));
+            }
+        }
+        cargada = true;
+    }
+
+    /**
+     * Registra el cambio de un usuario: tag y estado antes y después de la operación.
+     * Para altas el estado anterior es (null, false) y para bajas el nuevo es (null, false).
+     */
+    public synchronized void cambio(String tagAnterior, String estadoAnterior, String tagNuevo, String estadoNuevo) {
+        if (!cargada) {
+            // La carga inicial leerá el estado ya guardado en la base de datos
+            return;
+        }
+        Long antes = esActivo(estadoAnterior) && tagAnterior != null ? hash(tagAnterior) : null;
+        Long despues = esActivo(estadoNuevo) && tagNuevo != null ? hash(tagNuevo) : null;
+        if (antes != null && !antes.equals(despues) && activos.remove(antes)) {
+            registrar(antes, false);
+        }
+        if (despues != null && activos.add(despues)) {
+            registrar(despues, true);
+        }
+    }
+
+    public synchronized ListaPermitidosRespuesta consultar(Long epocaLector, Long desdeVersion) {
+        cargar();
+        boolean alDia = epocaLector != null && epocaLector == epoca && desdeVersion != null
+            && desdeVersion <= version
+            && (desdeVersion == version || (!cambios.isEmpty() && cambios.peekFirst().version <= desdeVersion + 1));
+        if (!alDia) {
+            return new ListaPermitidosRespuesta(epoca, version, true, snapshot(), null, null);
+        }
+
+        // Solo cuenta el último cambio de cada hash posterior a la versión del lector
+        Map<Long, Boolean> netos = new LinkedHashMap<>();
+        for (Cambio c : cambios) {
+            if (c.version > desdeVersion) {
+                netos.put(c.hash, c.alta);
+            }
+        }
+        ByteBuffer altas = ByteBuffer.allocate(8 * netos.size());
+        ByteBuffer bajas = ByteBuffer.allocate(8 * netos.size());
+        netos.forEach((h, alta) -> (alta ? altas : bajas).putLong(h));
+        return new ListaPermitidosRespuesta(epoca, version, false, null,
+            Arrays.copyOf(altas.array(), altas.position()), Arrays.copyOf(bajas.array(), bajas.position()));
+    }
+
+    private void registrar(long hash, boolean alta) {
+        version++;
+        cambios.addLast(new Cambio(version, hash, alta));
+        if (cambios.size() > maxCambios) {
+            cambios.removeFirst();
+        }
+    }
+
+    private byte[] snapshot() {
+        if (versionSnapshot != version) {
+            // Orden sin signo: se invierte el bit de signo, se ordena y se restaura
+            long[] hashes = new long[activos.size()];
+            int i = 0;
+            for (long h : activos) {
+                hashes[i++] = h ^ Long.MIN_VALUE;
+            }
+            Arrays.sort(hashes);
+            ByteBuffer buffer = ByteBuffer.allocate(8 * hashes.length);
+            for (long h : hashes) {
+                buffer.putLong(h ^ Long.MIN_VALUE);
+            }
+            snapshot = buffer.array();
+            versionSnapshot = version;
+        }
+        return snapshot;
+    }
+
+    private static boolean esActivo(String estado) {
+        return "Activo".equalsIgnoreCase(estado);
+    }
+
+    // Primeros 8 bytes (big-endian) de HMAC-SHA256 del tag; Mac no es thread-safe, de ahí el synchronized
+    public synchronized long hash(String rfidTag) {
+        return ByteBuffer.wrap(mac.doFinal(rfidTag.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    private static final class Cambio {
+        final long version;
+        final long hash;
+        final boolean alta;
+
+        Cambio(long version, long hash, boolean alta) {
+            this.version = version;
+            this.hash = hash;
+            this.alta = alta;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.services;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Respuesta 429 con cabecera Retry-After cuando se supera el límite de una regla de {@link LimitadorTasa}.
+ */
+public class TasaExcedidaException extends ResponseStatusException {
+
+    private final long reintentarEnSegundos;
+
+    public TasaExcedidaException(long reintentarEnSegundos) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Demasiadas solicitudes, intente más tarde");
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(reintentarEnSegundos));
+        return headers;
+    }
+}
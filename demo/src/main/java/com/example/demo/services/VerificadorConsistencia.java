@@ -0,0 +1,227 @@
+package com.example.demo.services;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.demo.dto.ReporteConsistencia;
+
+/**
+ * Recorre el log de registros de cada usuario en orden de id, igual que lo lee procesarMovimiento
+ * (cada movimiento alterna respecto al registro anterior), y comprueba cada fila solo contra la
+ * anterior. Los usuarios se reparten en rangos contiguos de usuario_id (NTILE sobre usuario); cada
+ * hilo recorre su rango con un cursor sobre el índice (usuario_id, id) y un estado de tamaño fijo,
+ * así que la memoria no depende del tamaño de la tabla.
+ * <p>
+ * Con reparar=true solo se eliminan los duplicados claros (mismo tipo que la fila anterior a pocos
+ * segundos); el resto se reporta. La reparación no detiene el registro de movimientos: una fila
+ * eliminada tiene el mismo tipo que la anterior conservada, así que el último tipo de cada usuario,
+ * que es lo único que lee procesarMovimiento, no cambia.
+ */
+@Service
+public class VerificadorConsistencia {
+
+    private static final String RANGOS =
+        "SELECT MIN(id), MAX(id) FROM (SELECT id, NTILE(?) OVER (ORDER BY id) AS grupo FROM usuario) u "
+        + "GROUP BY grupo ORDER BY grupo";
+    private static final String CONSULTA =
+        "SELECT id, usuario_id, tipo_movimiento, fecha_hora FROM registro "
+        + "WHERE usuario_id BETWEEN ? AND ? ORDER BY usuario_id, id";
+    private static final String ELIMINAR = "DELETE FROM registro WHERE id = ?";
+    private static final int LOTE_ELIMINACIONES = 500;
+
+    private final JdbcTemplate jdbc;
+    private final PlatformTransactionManager transactionManager;
+    private final int hilos;
+    private final long duplicadoMs;
+    private final int maxMuestras;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean();
+
+    public VerificadorConsistencia(DataSource dataSource, PlatformTransactionManager transactionManager,
+            @Value("${consistencia.hilos:0}") int hilos,
+            @Value("${consistencia.fetch-size:1000}") int fetchSize,
+            @Value("${consistencia.duplicado-segundos:3}") long duplicadoSegundos,
+            @Value("${consistencia.max-muestras:200}") int maxMuestras) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.transactionManager = transactionManager;
+        // Por defecto un hilo por núcleo, sin acaparar el pool de conexiones (10 en Hikari)
+        this.hilos = hilos > 0 ? hilos : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+        this.duplicadoMs = duplicadoSegundos * 1000;
+        this.maxMuestras = maxMuestras;
+    }
+
+    public ReporteConsistencia verificar(boolean reparar) {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Ya hay una verificación en curso");
+        }
+        try {
+            return ejecutar(reparar);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Verificación interrumpida");
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    private ReporteConsistencia ejecutar(boolean reparar) throws InterruptedException {
+        long inicio = System.nanoTime();
+        List<long[]> rangos = jdbc.query(RANGOS, (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2) }, hilos);
+
+        ReporteConsistencia reporte = new ReporteConsistencia(maxMuestras);
+        if (!rangos.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(rangos.size());
+            try {
+                List<Future<ReporteConsistencia>> parciales = new ArrayList<>();
+                for (long[] rango : rangos) {
+                    parciales.add(executor.submit(() -> verificarRango(rango[0], rango[1], reparar)));
+                }
+                for (Future<ReporteConsistencia> parcial : parciales) {
+                    reporte.combinar(parcial.get());
+                }
+            } catch (ExecutionException e) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error verificando registros: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        reporte.setReparar(reparar);
+        reporte.setParticiones(rangos.size());
+        reporte.setDuracionMs((System.nanoTime() - inicio) / 1_000_000);
+        return reporte;
+    }
+
+    private ReporteConsistencia verificarRango(long desdeUsuario, long hastaUsuario, boolean reparar) {
+        ReporteConsistencia reporte = new ReporteConsistencia(maxMuestras);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // El cursor de PostgreSQL solo respeta el fetch size dentro de una transacción
+        tx.setReadOnly(!reparar);
+        tx.executeWithoutResult(status -> {
+            Recorrido recorrido = new Recorrido(reporte, reparar);
+            jdbc.query(CONSULTA, (RowCallbackHandler) rs -> recorrido.procesar(
+                rs.getLong("id"), rs.getLong("usuario_id"), rs.getString("tipo_movimiento"),
+                rs.getTimestamp("fecha_hora")), desdeUsuario, hastaUsuario);
+            recorrido.terminar();
+        });
+        return reporte;
+    }
+
+    // Estado del recorrido de un rango: solo el usuario actual y su última fila conservada
+    private final class Recorrido {
+        private final ReporteConsistencia reporte;
+        private final boolean reparar;
+        private final List<Object[]> eliminaciones = new ArrayList<>(LOTE_ELIMINACIONES);
+
+        private long usuarioActual = Long.MIN_VALUE;
+        private String tipoAnterior;
+        private Timestamp fechaAnterior;
+
+        Recorrido(ReporteConsistencia reporte, boolean reparar) {
+            this.reporte = reporte;
+            this.reparar = reparar;
+        }
+
+        void procesar(long id, long usuarioId, String tipo, Timestamp fecha) {
+            if (usuarioId != usuarioActual) {
+                cerrarUsuario();
+                usuarioActual = usuarioId;
+                tipoAnterior = null;
+                fechaAnterior = null;
+                reporte.sumarUsuario();
+            }
+            reporte.sumarFila();
+
+            String actual = tipo != null ? tipo.toLowerCase() : null;
+            long diferencia = fecha != null && fechaAnterior != null
+                ? fecha.getTime() - fechaAnterior.getTime() : Long.MAX_VALUE;
+
+            if (actual != null && actual.equals(tipoAnterior) && diferencia >= 0 && diferencia < duplicadoMs) {
+                // Mismo tipo que la fila anterior a pocos segundos: carrera entre dos lecturas.
+                // Se descarta sin actualizar el estado, así la siguiente fila se compara con la anterior.
+                reporte.sumarDuplicado();
+                reporte.agregarMuestra(new ReporteConsistencia.Inconsistencia(id, usuarioId, "DUPLICADO",
+                    actual + " repetida " + diferencia + " ms después del registro anterior"));
+                if (reparar) {
+                    eliminar(id);
+                }
+                return;
+            }
+
+            if (!siguienteTipo(tipoAnterior).equals(actual)) {
+                reporte.sumarSecuenciaInvalida();
+                reporte.agregarMuestra(new ReporteConsistencia.Inconsistencia(id, usuarioId, "SECUENCIA_INVALIDA",
+                    "Se esperaba " + siguienteTipo(tipoAnterior) + " y se guardó " + tipo));
+            } else if (diferencia >= 0 && diferencia < duplicadoMs) {
+                reporte.sumarPosibleDuplicado();
+                reporte.agregarMuestra(new ReporteConsistencia.Inconsistencia(id, usuarioId, "POSIBLE_DUPLICADO",
+                    diferencia + " ms después del registro anterior"));
+            }
+            if (diferencia < 0) {
+                reporte.sumarFechaRetrocede();
+                reporte.agregarMuestra(new ReporteConsistencia.Inconsistencia(id, usuarioId, "FECHA_RETROCEDE",
+                    fecha + " es anterior a " + fechaAnterior));
+            }
+
+            if ("entrada".equals(actual)) {
+                reporte.sumarEntrada();
+            } else if ("salida".equals(actual)) {
+                reporte.sumarSalida();
+            }
+            tipoAnterior = actual;
+            if (fecha != null) {
+                fechaAnterior = fecha;
+            }
+        }
+
+        void terminar() {
+            cerrarUsuario();
+            enviarEliminaciones();
+        }
+
+        private void cerrarUsuario() {
+            if (usuarioActual != Long.MIN_VALUE && "entrada".equals(tipoAnterior)) {
+                reporte.sumarUsuarioDentro();
+            }
+        }
+
+        private void eliminar(long id) {
+            eliminaciones.add(new Object[] { id });
+            if (eliminaciones.size() >= LOTE_ELIMINACIONES) {
+                enviarEliminaciones();
+            }
+        }
+
+        private void enviarEliminaciones() {
+            if (eliminaciones.isEmpty()) {
+                return;
+            }
+            jdbc.batchUpdate(ELIMINAR, eliminaciones);
+            reporte.sumarEliminadas(eliminaciones.size());
+            eliminaciones.clear();
+        }
+    }
+
+    // Misma regla que procesarMovimiento: tras una entrada viene una salida, en otro caso una entrada
+    private static String siguienteTipo(String anterior) {
+        return "entrada".equalsIgnoreCase(anterior) ? "salida" : "entrada";
+    }
+}
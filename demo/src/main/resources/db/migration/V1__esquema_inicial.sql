@@ -0,0 +1,24 @@
+-- Esquema inicial: equivale al que generaba Hibernate con ddl-auto=update.
+-- En bases ya existentes Flyway marca esta versión como baseline y no la ejecuta.
+
+CREATE TABLE usuario (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre    VARCHAR(255),
+    documento VARCHAR(255),
+    rfid_tag  VARCHAR(255) UNIQUE,
+    estado    VARCHAR(255)
+);
+
+CREATE TABLE lector (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    ubicacion VARCHAR(255),
+    estado    VARCHAR(255)
+);
+
+CREATE TABLE registro (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo_movimiento VARCHAR(255),
+    fecha_hora      TIMESTAMP(6),
+    usuario_id      BIGINT REFERENCES usuario (id),
+    lector_id       BIGINT REFERENCES lector (id)
+);
@@ -0,0 +1,5 @@
+-- Índices para las consultas de RegistroRepository (último movimiento por usuario,
+-- historial por lector y filtro por fecha).
+CREATE INDEX IF NOT EXISTS idx_registro_usuario_id ON registro (usuario_id, id);
+CREATE INDEX IF NOT EXISTS idx_registro_lector_fecha ON registro (lector_id, fecha_hora);
+CREATE INDEX IF NOT EXISTS idx_registro_fecha_hora ON registro (fecha_hora);
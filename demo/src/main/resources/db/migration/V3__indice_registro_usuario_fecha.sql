@@ -0,0 +1,3 @@
+-- Índice para buscar el movimiento anterior/siguiente de un usuario alrededor de una fecha
+-- (bordes del reporte de asistencia).
+CREATE INDEX IF NOT EXISTS idx_registro_usuario_fecha ON registro (usuario_id, fecha_hora);
@@ -3,7 +3,7 @@ package com.example.demo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "lista-permitidos.clave=clave-solo-para-tests-0123456789")
 class DemoApplicationTests {
 
 	@Test
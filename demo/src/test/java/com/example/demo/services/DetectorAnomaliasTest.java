@@ -0,0 +1,157 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.Alerta;
+
+class DetectorAnomaliasTest {
+
+	private static final long SEGUNDO = 1000;
+	private static final long T0 = 1_000_000 * SEGUNDO;
+
+	// Viaje imposible en 30 s, ráfaga de tag de 100 en 60 s (fuera de juego salvo que se pida),
+	// ráfaga de 3 desconocidos en 10 s
+	private DetectorAnomalias detector(String tiemposTraslado) {
+		return new DetectorAnomalias(30, tiemposTraslado, 100, 60, 3, 10, 1000, 100);
+	}
+
+	private static List<Alerta> alertas(DetectorAnomalias detector, Alerta.Tipo tipo) {
+		return detector.getAlertas(0).stream().filter(a -> a.getTipo() == tipo).toList();
+	}
+
+	@Test
+	void laVentanaAvisaConNLecturasDentroDeLaVentana() {
+		DetectorAnomalias detector = detector("");
+
+		detector.registrarDesconocido("X1", 7L, T0);
+		detector.registrarDesconocido("X2", 7L, T0 + SEGUNDO);
+		assertEquals(0, alertas(detector, Alerta.Tipo.RAFAGA_DESCONOCIDOS).size());
+
+		detector.registrarDesconocido("X3", 7L, T0 + 9 * SEGUNDO);
+		List<Alerta> rafagas = alertas(detector, Alerta.Tipo.RAFAGA_DESCONOCIDOS);
+		assertEquals(1, rafagas.size());
+		assertEquals(7L, rafagas.get(0).getLectorId());
+		assertEquals("X3", rafagas.get(0).getRfidTag());
+	}
+
+	@Test
+	void laVentanaSeVaciaTrasAvisar() {
+		DetectorAnomalias detector = detector("");
+		for (int i = 0; i < 3; i++) {
+			detector.registrarDesconocido("X", 7L, T0 + i);
+		}
+		assertEquals(1, alertas(detector, Alerta.Tipo.RAFAGA_DESCONOCIDOS).size());
+
+		// Las dos lecturas siguientes no repiten la alerta; la tercera completa otra ráfaga
+		detector.registrarDesconocido("X", 7L, T0 + 3);
+		detector.registrarDesconocido("X", 7L, T0 + 4);
+		assertEquals(1, alertas(detector, Alerta.Tipo.RAFAGA_DESCONOCIDOS).size());
+		detector.registrarDesconocido("X", 7L, T0 + 5);
+		assertEquals(2, alertas(detector, Alerta.Tipo.RAFAGA_DESCONOCIDOS).size());
+	}
+
+	@Test
+	void laVentanaNoAvisaConLecturasEspaciadas() {
+		DetectorAnomalias detector = detector("");
+
+		// Una lectura cada 5 s: tres lecturas abarcan exactamente los 10 s de la ventana
+		for (int i = 0; i < 10; i++) {
+			detector.registrarDesconocido("X", 7L, T0 + i * 5 * SEGUNDO);
+		}
+		assertEquals(0, alertas(detector, Alerta.Tipo.RAFAGA_DESCONOCIDOS).size());
+	}
+
+	@Test
+	void laRafagaDeTagCuentaPorTag() {
+		DetectorAnomalias detector = new DetectorAnomalias(30, "", 3, 60, 5, 10, 1000, 100);
+
+		detector.registrarLectura("A", 1L, T0);
+		detector.registrarLectura("B", 1L, T0 + SEGUNDO);
+		detector.registrarLectura("A", 1L, T0 + 2 * SEGUNDO);
+		assertEquals(0, alertas(detector, Alerta.Tipo.RAFAGA_TAG).size());
+
+		detector.registrarLectura("A", 1L, T0 + 59 * SEGUNDO);
+		List<Alerta> rafagas = alertas(detector, Alerta.Tipo.RAFAGA_TAG);
+		assertEquals(1, rafagas.size());
+		assertEquals("A", rafagas.get(0).getRfidTag());
+	}
+
+	@Test
+	void usaElTiempoDeTrasladoConfiguradoParaElPar() {
+		DetectorAnomalias detector = detector("1-3:120");
+
+		// 60 s entre 1 y 3 superaría el valor por defecto (30 s) pero no los 120 s del par
+		detector.registrarLectura("A", 1L, T0);
+		detector.registrarLectura("A", 3L, T0 + 60 * SEGUNDO);
+		assertEquals(1, alertas(detector, Alerta.Tipo.VIAJE_IMPOSIBLE).size());
+
+		// El par no depende del orden de los lectores
+		detector.registrarLectura("B", 3L, T0);
+		detector.registrarLectura("B", 1L, T0 + 119 * SEGUNDO);
+		assertEquals(2, alertas(detector, Alerta.Tipo.VIAJE_IMPOSIBLE).size());
+
+		detector.registrarLectura("C", 1L, T0);
+		detector.registrarLectura("C", 3L, T0 + 120 * SEGUNDO);
+		assertEquals(2, alertas(detector, Alerta.Tipo.VIAJE_IMPOSIBLE).size());
+	}
+
+	@Test
+	void unTiempoDeTrasladoCeroDesactivaElPar() {
+		DetectorAnomalias detector = detector("1-2:0");
+
+		detector.registrarLectura("A", 1L, T0);
+		detector.registrarLectura("A", 2L, T0 + 1);
+		detector.registrarLectura("A", 1L, T0 + 2);
+		assertEquals(0, alertas(detector, Alerta.Tipo.VIAJE_IMPOSIBLE).size());
+	}
+
+	@Test
+	void losParesNoConfiguradosUsanElValorPorDefecto() {
+		DetectorAnomalias detector = detector("1-2:0,1-3:120");
+
+		detector.registrarLectura("A", 2L, T0);
+		detector.registrarLectura("A", 3L, T0 + 29 * SEGUNDO);
+		List<Alerta> viajes = alertas(detector, Alerta.Tipo.VIAJE_IMPOSIBLE);
+		assertEquals(1, viajes.size());
+		assertEquals(3L, viajes.get(0).getLectorId());
+
+		detector.registrarLectura("B", 2L, T0);
+		detector.registrarLectura("B", 3L, T0 + 30 * SEGUNDO);
+		assertEquals(1, alertas(detector, Alerta.Tipo.VIAJE_IMPOSIBLE).size());
+	}
+
+	@Test
+	void rechazaTiemposDeTrasladoMalFormados() {
+		for (String valor : List.of("1-2", "1:30", "1-2-3:30", "1-2:30:5", "a-2:30", "1-2:treinta")) {
+			assertThrows(IllegalArgumentException.class, () -> detector(valor), valor);
+		}
+	}
+
+	@Test
+	void limpiarSoloEliminaLasClavesInactivasMasQueLaVentanaMasLarga() {
+		// La ventana más larga es la del par 1-3 (120 s)
+		DetectorAnomalias detector = detector("1-3:120");
+		detector.registrarLectura("viejo", 1L, T0);
+		detector.registrarDesconocido("X", 5L, T0 + 50 * SEGUNDO);
+		detector.registrarLectura("reciente", 1L, T0 + 100 * SEGUNDO);
+		assertEquals(3, detector.clavesActivas());
+
+		// El lector 5 lleva 100 s inactivo, más que su ventana (10 s) pero menos que 120 s
+		detector.limpiar(T0 + 150 * SEGUNDO);
+		assertEquals(2, detector.clavesActivas());
+
+		detector.limpiar(T0 + 170 * SEGUNDO);
+		assertEquals(2, detector.clavesActivas());
+		detector.limpiar(T0 + 171 * SEGUNDO);
+		assertEquals(1, detector.clavesActivas());
+
+		// El tag reciente sigue recordando su último lector
+		detector.registrarLectura("reciente", 3L, T0 + 200 * SEGUNDO);
+		assertEquals(1, alertas(detector, Alerta.Tipo.VIAJE_IMPOSIBLE).size());
+	}
+}
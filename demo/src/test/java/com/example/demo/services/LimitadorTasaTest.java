@@ -0,0 +1,125 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LimitadorTasaTest {
+
+	private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+	// rfid-ip: 3 de ráfaga, 1 por segundo; el resto de reglas no se usan aquí
+	private LimitadorTasa limitador(int maxClaves) {
+		return new LimitadorTasa(3, 1, 1, 1, 1, 1, 1, 1, maxClaves);
+	}
+
+	@Test
+	void permiteLaRafagaYLuegoRechazaConRetryAfter() {
+		LimitadorTasa limitador = limitador(100);
+		LimitadorTasa.Regla regla = limitador.getRfidIp();
+		long t0 = 1_000 * SEGUNDO;
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, limitador.intentar(regla, "10.0.0.1", t0));
+		}
+		assertEquals(1, limitador.intentar(regla, "10.0.0.1", t0));
+	}
+
+	@Test
+	void recargaUnTokenPorIntervalo() {
+		LimitadorTasa limitador = limitador(100);
+		LimitadorTasa.Regla regla = limitador.getRfidIp();
+		long t0 = 1_000 * SEGUNDO;
+		for (int i = 0; i < 3; i++) {
+			limitador.intentar(regla, "10.0.0.1", t0);
+		}
+
+		assertEquals(0, limitador.intentar(regla, "10.0.0.1", t0 + SEGUNDO));
+		assertEquals(1, limitador.intentar(regla, "10.0.0.1", t0 + SEGUNDO));
+		// Tras tres segundos sin tráfico la cubeta vuelve a estar llena
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, limitador.intentar(regla, "10.0.0.1", t0 + 4 * SEGUNDO));
+		}
+	}
+
+	@Test
+	void calculaLaEsperaRedondeandoHaciaArriba() {
+		// login-usuario: 1 de ráfaga, 0.25 por segundo (un token cada 4 s)
+		LimitadorTasa limitador = new LimitadorTasa(1, 1, 1, 1, 1, 1, 1, 0.25, 100);
+		LimitadorTasa.Regla regla = limitador.getLoginUsuario();
+		long t0 = 1_000 * SEGUNDO;
+
+		assertEquals(0, limitador.intentar(regla, "admin", t0));
+		assertEquals(4, limitador.intentar(regla, "admin", t0));
+		assertEquals(2, limitador.intentar(regla, "admin", t0 + 2 * SEGUNDO + 1));
+	}
+
+	@Test
+	void lasClavesYReglasSonIndependientes() {
+		LimitadorTasa limitador = limitador(100);
+		long t0 = 1_000 * SEGUNDO;
+		for (int i = 0; i < 3; i++) {
+			limitador.intentar(limitador.getRfidIp(), "10.0.0.1", t0);
+		}
+
+		assertEquals(0, limitador.intentar(limitador.getRfidIp(), "10.0.0.2", t0));
+		assertEquals(0, limitador.intentar(limitador.getLoginIp(), "10.0.0.1", t0));
+	}
+
+	@Test
+	void conElMapaLlenoLasClavesNuevasCompartenLaCubetaDeDesborde() {
+		LimitadorTasa limitador = limitador(1);
+		LimitadorTasa.Regla regla = limitador.getRfidIp();
+		long t0 = 1_000 * SEGUNDO;
+
+		assertEquals(0, limitador.intentar(regla, "10.0.0.1", t0));
+		// Mapa lleno: 10.0.0.2, 10.0.0.3 y 10.0.0.4 consumen de la misma cubeta "*"
+		assertEquals(0, limitador.intentar(regla, "10.0.0.2", t0));
+		assertEquals(0, limitador.intentar(regla, "10.0.0.3", t0));
+		assertEquals(0, limitador.intentar(regla, "10.0.0.4", t0));
+		assertEquals(1, limitador.intentar(regla, "10.0.0.5", t0));
+		assertEquals(1, limitador.cubetasActivas());
+	}
+
+	@Test
+	void cadaReglaTieneSuPropioLimiteDeClaves() {
+		LimitadorTasa limitador = new LimitadorTasa(1, 1, 1, 1, 1, 1, 1, 0.25, 100);
+		long t0 = 1_000 * SEGUNDO;
+		limitador.intentar(limitador.getLoginUsuario(), "admin", t0);
+
+		// Una avalancha de lectorId aleatorios llena solo el mapa de rfid-lector
+		for (int i = 0; i < 1_000; i++) {
+			limitador.intentar(limitador.getRfidLector(), "lector-" + i, t0);
+		}
+
+		// admin conserva su propia cubeta (vacía) y un usuario nuevo recibe una cubeta llena
+		assertEquals(4, limitador.intentar(limitador.getLoginUsuario(), "admin", t0));
+		assertEquals(0, limitador.intentar(limitador.getLoginUsuario(), "operador", t0));
+		assertEquals(0, limitador.intentar(limitador.getRfidIp(), "10.0.0.1", t0));
+		assertEquals(103, limitador.cubetasActivas());
+	}
+
+	@Test
+	void rechazaTasasNoPositivas() {
+		for (double porSegundo : new double[] { 0, -1, Double.NaN, Double.POSITIVE_INFINITY }) {
+			assertThrows(IllegalArgumentException.class,
+				() -> new LimitadorTasa(1, porSegundo, 1, 1, 1, 1, 1, 1, 100), String.valueOf(porSegundo));
+		}
+	}
+
+	@Test
+	void limpiarDescartaSoloLasCubetasLlenas() {
+		LimitadorTasa limitador = limitador(100);
+		LimitadorTasa.Regla regla = limitador.getRfidIp();
+		long t0 = 1_000 * SEGUNDO;
+		limitador.intentar(regla, "10.0.0.1", t0);
+		limitador.intentar(regla, "10.0.0.2", t0 + 5 * SEGUNDO);
+
+		limitador.limpiar(t0 + 5 * SEGUNDO);
+
+		assertEquals(1, limitador.cubetasActivas());
+	}
+}
@@ -0,0 +1,162 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.ListaPermitidosRespuesta;
+import com.example.demo.entities.Usuario;
+import com.example.demo.repositories.UsuarioRepository;
+
+class ListaPermitidosTest {
+
+	private static final String CLAVE = "clave-de-prueba-para-lectores";
+
+	private ListaPermitidos lista(int maxCambios, Usuario... usuarios) {
+		UsuarioRepository repo = mock(UsuarioRepository.class);
+		when(repo.findAll()).thenReturn(Arrays.asList(usuarios));
+		ListaPermitidos lista = new ListaPermitidos(repo, CLAVE, maxCambios);
+		lista.cargar();
+		return lista;
+	}
+
+	private static Usuario usuario(String tag, String estado) {
+		Usuario u = new Usuario();
+		u.setRfidTag(tag);
+		u.setEstado(estado);
+		return u;
+	}
+
+	private static List<Long> longs(byte[] bytes) {
+		List<Long> valores = new ArrayList<>();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			valores.add(buffer.getLong());
+		}
+		return valores;
+	}
+
+	@Test
+	void laListaCompletaSoloTraeActivosOrdenadosSinSigno() {
+		List<Usuario> usuarios = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			usuarios.add(usuario("TAG" + i, "Activo"));
+		}
+		usuarios.add(usuario("INACTIVO", "Inactivo"));
+		usuarios.add(usuario(null, "Activo"));
+		ListaPermitidos lista = lista(100, usuarios.toArray(new Usuario[0]));
+
+		ListaPermitidosRespuesta r = lista.consultar(null, null);
+
+		assertTrue(r.isCompleta());
+		List<Long> hashes = longs(r.getHashes());
+		assertEquals(50, hashes.size());
+		for (int i = 1; i < hashes.size(); i++) {
+			assertTrue(Long.compareUnsigned(hashes.get(i - 1), hashes.get(i)) < 0);
+		}
+		// Con 50 hashes aleatorios es prácticamente seguro que hay con y sin bit de signo
+		assertTrue(hashes.stream().anyMatch(h -> h < 0));
+		assertTrue(hashes.stream().anyMatch(h -> h >= 0));
+		assertTrue(hashes.contains(lista.hash("TAG7")));
+		assertFalse(hashes.contains(lista.hash("INACTIVO")));
+	}
+
+	@Test
+	void elHashDependeDeLaClave() {
+		UsuarioRepository repo = mock(UsuarioRepository.class);
+		ListaPermitidos otra = new ListaPermitidos(repo, "otra-clave-distinta-de-prueba", 100);
+
+		assertNotEquals(lista(100).hash("A1B2C3D4"), otra.hash("A1B2C3D4"));
+	}
+
+	@Test
+	void losDeltasSonNetosDesdeLaVersionDelLector() {
+		ListaPermitidos lista = lista(100, usuario("A", "Activo"));
+		ListaPermitidosRespuesta inicial = lista.consultar(null, null);
+
+		lista.cambio(null, null, "B", "Activo");
+		lista.cambio(null, null, "C", "Activo");
+		lista.cambio("C", "Activo", null, null);
+		lista.cambio("A", "Activo", "A", "Inactivo");
+
+		ListaPermitidosRespuesta r = lista.consultar(inicial.getEpoca(), inicial.getVersion());
+
+		assertFalse(r.isCompleta());
+		assertNull(r.getHashes());
+		assertEquals(4, r.getVersion());
+		assertEquals(List.of(lista.hash("B")), longs(r.getAltas()));
+		assertEquals(List.of(lista.hash("C"), lista.hash("A")), longs(r.getBajas()));
+	}
+
+	@Test
+	void unLectorAlDiaRecibeUnDeltaVacio() {
+		ListaPermitidos lista = lista(100, usuario("A", "Activo"));
+		lista.cambio(null, null, "B", "Activo");
+		ListaPermitidosRespuesta actual = lista.consultar(null, null);
+
+		ListaPermitidosRespuesta r = lista.consultar(actual.getEpoca(), actual.getVersion());
+
+		assertFalse(r.isCompleta());
+		assertArrayEquals(new byte[0], r.getAltas());
+		assertArrayEquals(new byte[0], r.getBajas());
+	}
+
+	@Test
+	void cambiosQueNoAlteranLaListaNoSubenLaVersion() {
+		ListaPermitidos lista = lista(100, usuario("A", "Activo"));
+
+		lista.cambio("A", "Activo", "A", "activo");
+		lista.cambio(null, "Inactivo", "Z", "Inactivo");
+
+		assertEquals(0, lista.consultar(null, null).getVersion());
+	}
+
+	@Test
+	void otraEpocaDevuelveLaListaCompleta() {
+		ListaPermitidos lista = lista(100, usuario("A", "Activo"));
+		ListaPermitidosRespuesta actual = lista.consultar(null, null);
+
+		ListaPermitidosRespuesta r = lista.consultar(actual.getEpoca() - 1, actual.getVersion());
+
+		assertTrue(r.isCompleta());
+		assertEquals(List.of(lista.hash("A")), longs(r.getHashes()));
+	}
+
+	@Test
+	void unaVersionFueraDelHistorialDevuelveLaListaCompleta() {
+		ListaPermitidos lista = lista(2);
+		long epoca = lista.consultar(null, null).getEpoca();
+		lista.cambio(null, null, "A", "Activo");
+		lista.cambio(null, null, "B", "Activo");
+		lista.cambio(null, null, "C", "Activo");
+
+		// El historial guarda las versiones 2 y 3: desde 0 falta la 1
+		ListaPermitidosRespuesta desde0 = lista.consultar(epoca, 0L);
+		assertTrue(desde0.isCompleta());
+		assertEquals(3, longs(desde0.getHashes()).size());
+
+		ListaPermitidosRespuesta desde1 = lista.consultar(epoca, 1L);
+		assertFalse(desde1.isCompleta());
+		assertEquals(List.of(lista.hash("B"), lista.hash("C")), longs(desde1.getAltas()));
+	}
+
+	@Test
+	void unaVersionFuturaDevuelveLaListaCompleta() {
+		ListaPermitidos lista = lista(100, usuario("A", "Activo"));
+		long epoca = lista.consultar(null, null).getEpoca();
+
+		assertTrue(lista.consultar(epoca, 5L).isCompleta());
+	}
+}